@@ -0,0 +1,131 @@
+package io.ljunggren.file.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class DirectoryScanner {
+
+    private int maxDepth = Integer.MAX_VALUE;
+    private long minFileCount = 0;
+    private int parallelism = 0;
+
+    public DirectoryScanner maxDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Max depth is negative");
+        }
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    public DirectoryScanner minFileCount(long minFileCount) {
+        if (minFileCount < 0) {
+            throw new IllegalArgumentException("Min file count is negative");
+        }
+        this.minFileCount = minFileCount;
+        return this;
+    }
+
+    public DirectoryScanner parallelism(int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("Parallelism is negative");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public DirectoryStats scan(File directory) throws IOException {
+        return scan(directory == null ? null : directory.toPath());
+    }
+
+    public DirectoryStats scan(String directory) throws IOException {
+        return scan(directory == null ? null : Paths.get(directory));
+    }
+
+    public DirectoryStats scan(Path directory) throws IOException {
+        if (directory == null) {
+            throw new IOException("Path is null");
+        }
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Path is not a directory");
+        }
+        ScanTask task = new ScanTask(directory, 0);
+        if (parallelism == 0) {
+            return ForkJoinPool.commonPool().invoke(task);
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(task);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private boolean isReported(DirectoryStats stats) {
+        return stats.getDepth() <= maxDepth && stats.getFileCount() >= minFileCount;
+    }
+
+    private class ScanTask extends RecursiveTask<DirectoryStats> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        private final int depth;
+
+        private ScanTask(Path directory, int depth) {
+            this.directory = directory;
+            this.depth = depth;
+        }
+
+        @Override
+        protected DirectoryStats compute() {
+            DirectoryStats stats = new DirectoryStats(directory, depth);
+            List<ScanTask> subtasks = new ArrayList<>();
+            try {
+                Path start = depth == 0 ? directory.toRealPath() : directory;
+                Files.walkFileTree(start, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
+                        Path file = directory.resolve(path.getFileName());
+                        if (attributes.isDirectory()) {
+                            subtasks.add(new ScanTask(file, depth + 1));
+                        } else if (attributes.isRegularFile()) {
+                            stats.addFile(file, attributes.size(), attributes.lastModifiedTime().toMillis());
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        stats.addError();
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                stats.addError();
+            }
+            invokeAll(subtasks);
+            for (ScanTask subtask : subtasks) {
+                DirectoryStats child = subtask.join();
+                stats.addDirectory(child);
+                if (isReported(child)) {
+                    stats.addChild(child);
+                }
+            }
+            return stats;
+        }
+
+    }
+
+}
@@ -0,0 +1,430 @@
+package io.ljunggren.file.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DirectorySnapshot {
+
+    private static final int MAGIC = 0x534e4150;
+    private static final int VERSION = 1;
+    private static final int MIN_ENTRY_SIZE = 4;
+
+    private final int count;
+    private final byte[] pathData;
+    private final int[] pathOffsets;
+    private final long[] sizes;
+    private final long[] modified;
+    private final long[] hashes;
+    private final int errorCount;
+
+    private DirectorySnapshot(int count, byte[] pathData, int[] pathOffsets, long[] sizes, long[] modified, long[] hashes,
+            int errorCount) {
+        this.count = count;
+        this.pathData = pathData;
+        this.pathOffsets = pathOffsets;
+        this.sizes = sizes;
+        this.modified = modified;
+        this.hashes = hashes;
+        this.errorCount = errorCount;
+    }
+
+    public static DirectorySnapshot take(String directory) throws IOException {
+        return take(directory == null ? null : Paths.get(directory));
+    }
+
+    public static DirectorySnapshot take(Path directory) throws IOException {
+        return take(directory, false);
+    }
+
+    public static DirectorySnapshot take(Path directory, boolean hash) throws IOException {
+        return take(directory, hash, null);
+    }
+
+    public static DirectorySnapshot take(Path directory, boolean hash, DirectorySnapshot previous) throws IOException {
+        if (directory == null) {
+            throw new IOException("Path is null");
+        }
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Path is not a directory");
+        }
+        Path root = directory.toRealPath();
+        Listing listing = new Listing();
+        AtomicInteger errors = new AtomicInteger();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) {
+                    String path = root.relativize(file).toString().replace(File.separatorChar, '/');
+                    listing.add(path.getBytes(StandardCharsets.UTF_8), attrs.size(), attrs.lastModifiedTime().toMillis());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                errors.incrementAndGet();
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                if (e != null) {
+                    errors.incrementAndGet();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return build(root, listing, hash, previous, errors.get());
+    }
+
+    static DirectorySnapshot build(Path directory, Listing listing, boolean hash, DirectorySnapshot previous, int errors) {
+        List<byte[]> paths = listing.paths;
+        int[] order = sortedOrder(paths);
+        long[] hashes = hash ? new long[order.length] : null;
+        int count = 0;
+        int length = 0;
+        for (int i = 0; i < order.length; i++) {
+            byte[] path = paths.get(order[i]);
+            if (hash) {
+                int index = previous == null || !previous.isHashed() ? -1 : previous.indexOf(path, 0, path.length);
+                if (index >= 0 && previous.sizes[index] == listing.sizes[order[i]]
+                        && previous.modified[index] == listing.modified[order[i]]) {
+                    hashes[count] = previous.hashes[index];
+                } else {
+                    try {
+                        hashes[count] = hash(directory.resolve(new String(path, StandardCharsets.UTF_8)));
+                    } catch (IOException e) {
+                        errors++;
+                        continue;
+                    }
+                }
+            }
+            order[count++] = order[i];
+            length += path.length;
+        }
+        byte[] pathData = new byte[length];
+        int[] pathOffsets = new int[count + 1];
+        long[] sizes = new long[count];
+        long[] modified = new long[count];
+        for (int i = 0; i < count; i++) {
+            byte[] path = paths.set(order[i], null);
+            System.arraycopy(path, 0, pathData, pathOffsets[i], path.length);
+            pathOffsets[i + 1] = pathOffsets[i] + path.length;
+            sizes[i] = listing.sizes[order[i]];
+            modified[i] = listing.modified[order[i]];
+        }
+        return new DirectorySnapshot(count, pathData, pathOffsets, sizes, modified,
+                hash ? Arrays.copyOf(hashes, count) : null, errors);
+    }
+
+    private static int[] sortedOrder(List<byte[]> paths) {
+        int length = paths.size();
+        int[] order = new int[length];
+        int[] buffer = new int[length];
+        for (int i = 0; i < length; i++) {
+            order[i] = i;
+        }
+        for (int width = 1; width < length; width *= 2) {
+            for (int from = 0; from < length; from += 2 * width) {
+                int middle = Math.min(from + width, length);
+                int to = Math.min(from + 2 * width, length);
+                int i = from;
+                int j = middle;
+                for (int k = from; k < to; k++) {
+                    if (j == to || (i < middle && compare(paths.get(order[i]), paths.get(order[j])) <= 0)) {
+                        buffer[k] = order[i++];
+                    } else {
+                        buffer[k] = order[j++];
+                    }
+                }
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    public static DirectorySnapshot load(String path) throws IOException {
+        return load(path == null ? null : Paths.get(path));
+    }
+
+    public static DirectorySnapshot load(Path path) throws IOException {
+        if (path == null) {
+            throw new IOException("Path is null");
+        }
+        long fileSize = Files.size(path);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("File is not a directory snapshot");
+            }
+            if (in.readInt() != VERSION) {
+                throw new IOException("Unsupported snapshot version");
+            }
+            boolean hashed = in.readBoolean();
+            int count = in.readInt();
+            if (count < 0 || count > fileSize / MIN_ENTRY_SIZE) {
+                throw new IOException("Snapshot is corrupt");
+            }
+            ByteArrayOutputStream pathData = new ByteArrayOutputStream();
+            int[] pathOffsets = new int[count + 1];
+            long[] sizes = new long[count];
+            long[] modified = new long[count];
+            long[] hashes = hashed ? new long[count] : null;
+            byte[] previous = new byte[0];
+            for (int i = 0; i < count; i++) {
+                long shared = readVarLong(in);
+                long suffix = readVarLong(in);
+                if (shared < 0 || shared > previous.length || suffix < 0 || suffix > fileSize
+                        || pathOffsets[i] + shared + suffix > Integer.MAX_VALUE) {
+                    throw new IOException("Snapshot is corrupt");
+                }
+                byte[] entry = new byte[(int) (shared + suffix)];
+                System.arraycopy(previous, 0, entry, 0, (int) shared);
+                in.readFully(entry, (int) shared, (int) suffix);
+                pathData.write(entry);
+                pathOffsets[i + 1] = pathOffsets[i] + entry.length;
+                sizes[i] = readVarLong(in);
+                modified[i] = readVarLong(in);
+                if (hashed) {
+                    hashes[i] = in.readLong();
+                }
+                previous = entry;
+            }
+            return new DirectorySnapshot(count, pathData.toByteArray(), pathOffsets, sizes, modified, hashes, 0);
+        }
+    }
+
+    public void save(String path) throws IOException {
+        save(path == null ? null : Paths.get(path));
+    }
+
+    public void save(Path path) throws IOException {
+        if (path == null) {
+            throw new IOException("Path is null");
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeBoolean(isHashed());
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                int start = pathOffsets[i];
+                int end = pathOffsets[i + 1];
+                int shared = i == 0 ? 0 : sharedPrefix(pathOffsets[i - 1], pathOffsets[i], start, end);
+                writeVarLong(out, shared);
+                writeVarLong(out, end - start - shared);
+                out.write(pathData, start + shared, end - start - shared);
+                writeVarLong(out, sizes[i]);
+                writeVarLong(out, modified[i]);
+                if (isHashed()) {
+                    out.writeLong(hashes[i]);
+                }
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public SnapshotDiff diff(DirectorySnapshot newer) {
+        SnapshotDiff diff = new SnapshotDiff();
+        if (newer == null) {
+            return diff;
+        }
+        int i = 0;
+        int j = 0;
+        while (i < count || j < newer.count) {
+            int comparison;
+            if (i == count) {
+                comparison = 1;
+            } else if (j == newer.count) {
+                comparison = -1;
+            } else {
+                comparison = compare(pathData, pathOffsets[i], pathOffsets[i + 1],
+                        newer.pathData, newer.pathOffsets[j], newer.pathOffsets[j + 1]);
+            }
+            if (comparison < 0) {
+                diff.addRemoved(getPath(i++));
+            } else if (comparison > 0) {
+                diff.addAdded(newer.getPath(j++));
+            } else {
+                if (isModified(i, newer, j)) {
+                    diff.addModified(newer.getPath(j));
+                }
+                i++;
+                j++;
+            }
+        }
+        return diff;
+    }
+
+    public int getFileCount() {
+        return count;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public boolean isHashed() {
+        return hashes != null;
+    }
+
+    public String getPath(int index) {
+        return new String(pathData, pathOffsets[index], pathOffsets[index + 1] - pathOffsets[index], StandardCharsets.UTF_8);
+    }
+
+    public long getSize(int index) {
+        return sizes[index];
+    }
+
+    public long getLastModified(int index) {
+        return modified[index];
+    }
+
+    public long getHash(int index) {
+        if (hashes == null) {
+            throw new IllegalStateException("Snapshot is not hashed");
+        }
+        return hashes[index];
+    }
+
+    public int indexOf(String path) {
+        if (path == null) {
+            return -1;
+        }
+        byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+        return indexOf(bytes, 0, bytes.length);
+    }
+
+    private int indexOf(byte[] path, int from, int to) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(pathData, pathOffsets[middle], pathOffsets[middle + 1], path, from, to);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isModified(int index, DirectorySnapshot newer, int newerIndex) {
+        if (sizes[index] != newer.sizes[newerIndex]) {
+            return true;
+        }
+        if (isHashed() && newer.isHashed()) {
+            return hashes[index] != newer.hashes[newerIndex];
+        }
+        return modified[index] != newer.modified[newerIndex];
+    }
+
+    private int sharedPrefix(int previousStart, int previousEnd, int start, int end) {
+        int shared = 0;
+        while (previousStart + shared < previousEnd && start + shared < end
+                && pathData[previousStart + shared] == pathData[start + shared]) {
+            shared++;
+        }
+        return shared;
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        return compare(a, 0, a.length, b, 0, b.length);
+    }
+
+    private static int compare(byte[] a, int aFrom, int aTo, byte[] b, int bFrom, int bTo) {
+        int length = Math.min(aTo - aFrom, bTo - bFrom);
+        for (int i = 0; i < length; i++) {
+            int comparison = (a[aFrom + i] & 0xff) - (b[bFrom + i] & 0xff);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return (aTo - aFrom) - (bTo - bFrom);
+    }
+
+    private static long hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Hash algorithm is not available", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7fL) != 0) {
+            out.writeByte((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Snapshot is corrupt");
+    }
+
+    static class Listing {
+
+        private final List<byte[]> paths = new ArrayList<>();
+        private long[] sizes = new long[1024];
+        private long[] modified = new long[1024];
+
+        void add(byte[] path, long size, long lastModified) {
+            int index = paths.size();
+            if (index == sizes.length) {
+                sizes = Arrays.copyOf(sizes, index * 2);
+                modified = Arrays.copyOf(modified, index * 2);
+            }
+            paths.add(path);
+            sizes[index] = size;
+            modified[index] = lastModified;
+        }
+
+    }
+
+}
@@ -0,0 +1,134 @@
+package io.ljunggren.file.utils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DirectoryStats {
+
+    private final Path path;
+    private final int depth;
+    private long size = 0;
+    private long fileCount = 0;
+    private long directoryCount = 0;
+    private long errorCount = 0;
+    private final Map<String, Long> extensionCounts = new HashMap<>();
+    private final Map<String, Long> extensionSizes = new HashMap<>();
+    private Path oldestFile;
+    private long oldestModified = Long.MAX_VALUE;
+    private Path newestFile;
+    private long newestModified = Long.MIN_VALUE;
+    private final List<DirectoryStats> children = new ArrayList<>();
+
+    DirectoryStats(Path path, int depth) {
+        this.path = path;
+        this.depth = depth;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    public long getDirectoryCount() {
+        return directoryCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public Map<String, Long> getExtensionCounts() {
+        return Collections.unmodifiableMap(extensionCounts);
+    }
+
+    public Map<String, Long> getExtensionSizes() {
+        return Collections.unmodifiableMap(extensionSizes);
+    }
+
+    public Path getOldestFile() {
+        return oldestFile;
+    }
+
+    public long getOldestModified() {
+        return oldestModified;
+    }
+
+    public Path getNewestFile() {
+        return newestFile;
+    }
+
+    public long getNewestModified() {
+        return newestModified;
+    }
+
+    public List<DirectoryStats> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    void addFile(Path file, long fileSize, long lastModified) {
+        size += fileSize;
+        fileCount++;
+        String extension = extension(file.getFileName().toString());
+        extensionCounts.merge(extension, 1L, Long::sum);
+        extensionSizes.merge(extension, fileSize, Long::sum);
+        if (oldestFile == null || lastModified < oldestModified) {
+            oldestFile = file;
+            oldestModified = lastModified;
+        }
+        if (newestFile == null || lastModified > newestModified) {
+            newestFile = file;
+            newestModified = lastModified;
+        }
+    }
+
+    void addError() {
+        errorCount++;
+    }
+
+    void addDirectory(DirectoryStats child) {
+        size += child.size;
+        fileCount += child.fileCount;
+        directoryCount += child.directoryCount + 1;
+        errorCount += child.errorCount;
+        child.extensionCounts.forEach((extension, count) -> extensionCounts.merge(extension, count, Long::sum));
+        child.extensionSizes.forEach((extension, bytes) -> extensionSizes.merge(extension, bytes, Long::sum));
+        if (child.oldestFile != null && (oldestFile == null || child.oldestModified < oldestModified)) {
+            oldestFile = child.oldestFile;
+            oldestModified = child.oldestModified;
+        }
+        if (child.newestFile != null && (newestFile == null || child.newestModified > newestModified)) {
+            newestFile = child.newestFile;
+            newestModified = child.newestModified;
+        }
+    }
+
+    void addChild(DirectoryStats child) {
+        children.add(child);
+    }
+
+    private static String extension(String filename) {
+        int index = filename.lastIndexOf('.');
+        return index < 0 ? "" : filename.substring(index + 1);
+    }
+
+    @Override
+    public String toString() {
+        return path + " (" + fileCount + " files, " + directoryCount + " directories, " + size + " bytes)";
+    }
+
+}
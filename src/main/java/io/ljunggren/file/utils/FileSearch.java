@@ -0,0 +1,434 @@
+package io.ljunggren.file.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class FileSearch {
+
+    private static final int MAP_THRESHOLD = 1 << 20;
+    private static final int WINDOW_SIZE = 64 << 20;
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+
+    private final Charset charset;
+    private final Matcher matcher;
+    private int maxMatches = Integer.MAX_VALUE;
+    private int contextLines = 0;
+    private int mapThreshold = MAP_THRESHOLD;
+    private int windowSize = WINDOW_SIZE;
+
+    public FileSearch(String... patterns) {
+        this(Charset.defaultCharset(), patterns);
+    }
+
+    public FileSearch(Charset charset, String... patterns) {
+        if (charset == null) {
+            throw new IllegalArgumentException("Charset is null");
+        }
+        if (patterns == null || patterns.length == 0) {
+            throw new IllegalArgumentException("Patterns are empty");
+        }
+        List<byte[]> encoded = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (pattern == null || pattern.isEmpty()) {
+                throw new IllegalArgumentException("Pattern is empty");
+            }
+            if (pattern.indexOf('\n') >= 0 || pattern.indexOf('\r') >= 0) {
+                throw new IllegalArgumentException("Pattern contains a line break");
+            }
+            encoded.add(pattern.getBytes(charset));
+        }
+        this.charset = charset;
+        this.matcher = encoded.size() == 1 ? new HorspoolMatcher(encoded.get(0)) : new AhoCorasickMatcher(encoded);
+    }
+
+    public FileSearch maxMatches(int maxMatches) {
+        if (maxMatches < 0) {
+            throw new IllegalArgumentException("Max matches is negative");
+        }
+        this.maxMatches = maxMatches;
+        return this;
+    }
+
+    public FileSearch contextLines(int contextLines) {
+        if (contextLines < 0) {
+            throw new IllegalArgumentException("Context lines is negative");
+        }
+        this.contextLines = contextLines;
+        return this;
+    }
+
+    FileSearch mapThreshold(int mapThreshold) {
+        this.mapThreshold = Math.min(mapThreshold, MAP_THRESHOLD);
+        return this;
+    }
+
+    FileSearch windowSize(int windowSize) {
+        this.windowSize = windowSize;
+        return this;
+    }
+
+    public List<SearchMatch> search(File file) throws IOException {
+        return search(file == null ? null : file.toPath());
+    }
+
+    public List<SearchMatch> search(String path) throws IOException {
+        return search(path == null ? null : Paths.get(path));
+    }
+
+    public List<SearchMatch> search(Path path) throws IOException {
+        if (path == null) {
+            throw new IOException("Path is null");
+        }
+        AtomicInteger remaining = new AtomicInteger(maxMatches);
+        if (!Files.isDirectory(path)) {
+            return searchFile(path, remaining);
+        }
+        Path root = path.toRealPath();
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    files.add(path.resolve(root.relativize(file)));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return searchFiles(files, remaining);
+    }
+
+    List<SearchMatch> searchFiles(List<Path> files, AtomicInteger remaining) {
+        return files.parallelStream()
+                .map(file -> {
+                    try {
+                        return searchFile(file, remaining);
+                    } catch (IOException e) {
+                        return Collections.<SearchMatch>emptyList();
+                    }
+                })
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    private List<SearchMatch> searchFile(Path path, AtomicInteger remaining) throws IOException {
+        List<SearchMatch> matches = new ArrayList<>();
+        if (remaining.get() <= 0) {
+            return matches;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Scan scan = new Scan(path, remaining, matches);
+            if (size <= mapThreshold) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                }
+                scan.window(buffer, buffer.position(), true);
+                return matches;
+            }
+            long position = 0;
+            while (position < size && !scan.isDone()) {
+                long length = Math.min(windowSize, size - position);
+                while (true) {
+                    ByteBuffer buffer = channel.map(MapMode.READ_ONLY, position, length);
+                    boolean last = position + length == size;
+                    int limit = last ? (int) length : lastNewLine(buffer, (int) length) + 1;
+                    if (limit > 0 || length >= MAX_WINDOW_SIZE) {
+                        limit = limit > 0 ? limit : (int) length;
+                        scan.window(buffer, limit, last);
+                        position += limit;
+                        break;
+                    }
+                    length = Math.min(Math.min(length * 2, MAX_WINDOW_SIZE), size - position);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static int lastNewLine(ByteBuffer buffer, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lineStart(ByteBuffer buffer, int index) {
+        int i = index;
+        while (i > 0 && buffer.get(i - 1) != '\n') {
+            i--;
+        }
+        return i;
+    }
+
+    private static int lineEnd(ByteBuffer buffer, int index, int limit) {
+        int i = index;
+        while (i < limit && buffer.get(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    private static long countNewLines(ByteBuffer buffer, int from, int to) {
+        long count = 0;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private String decode(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, charset);
+    }
+
+    private class Scan {
+
+        private final Path path;
+        private final AtomicInteger remaining;
+        private final List<SearchMatch> matches;
+        private final List<SearchMatch> pending = new ArrayList<>();
+        private Deque<String> previous = new ArrayDeque<>();
+        private long lineNumber = 1;
+        private boolean stopped = false;
+
+        private Scan(Path path, AtomicInteger remaining, List<SearchMatch> matches) {
+            this.path = path;
+            this.remaining = remaining;
+            this.matches = matches;
+        }
+
+        private boolean isDone() {
+            return stopped && pending.isEmpty();
+        }
+
+        private void window(ByteBuffer buffer, int limit, boolean last) {
+            int counted = 0;
+            int filled = 0;
+            int position = 0;
+            while (!stopped && position < limit) {
+                int hit = matcher.find(buffer, position, limit);
+                if (hit < 0) {
+                    break;
+                }
+                int start = lineStart(buffer, hit);
+                int end = lineEnd(buffer, hit, limit);
+                lineNumber += countNewLines(buffer, counted, start);
+                counted = start;
+                fill(buffer, filled, start);
+                String line = decode(buffer, start, end);
+                addPending(line);
+                filled = Math.min(end + 1, limit);
+                position = end + 1;
+                if (remaining.getAndDecrement() <= 0) {
+                    stopped = true;
+                    break;
+                }
+                SearchMatch match = new SearchMatch(path, lineNumber, line, before(buffer, start));
+                matches.add(match);
+                if (contextLines > 0) {
+                    pending.add(match);
+                }
+            }
+            fill(buffer, filled, limit);
+            if (last) {
+                return;
+            }
+            lineNumber += countNewLines(buffer, counted, limit);
+            if (contextLines > 0) {
+                previous = new ArrayDeque<>(before(buffer, limit));
+            }
+        }
+
+        private List<String> before(ByteBuffer buffer, int start) {
+            LinkedList<String> lines = new LinkedList<>();
+            int end = start - 1;
+            while (lines.size() < contextLines && end >= 0) {
+                int lineStart = lineStart(buffer, end);
+                lines.addFirst(decode(buffer, lineStart, end));
+                end = lineStart - 1;
+            }
+            Iterator<String> iterator = previous.descendingIterator();
+            while (lines.size() < contextLines && iterator.hasNext()) {
+                lines.addFirst(iterator.next());
+            }
+            return lines;
+        }
+
+        private void fill(ByteBuffer buffer, int from, int to) {
+            int start = from;
+            while (!pending.isEmpty() && start < to) {
+                int end = lineEnd(buffer, start, to);
+                addPending(decode(buffer, start, end));
+                start = end + 1;
+            }
+        }
+
+        private void addPending(String line) {
+            Iterator<SearchMatch> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                SearchMatch match = iterator.next();
+                match.addAfter(line);
+                if (match.getAfter().size() >= contextLines) {
+                    iterator.remove();
+                }
+            }
+        }
+
+    }
+
+    private interface Matcher {
+
+        int find(ByteBuffer buffer, int from, int to);
+
+    }
+
+    private static class HorspoolMatcher implements Matcher {
+
+        private final byte[] pattern;
+        private final int[] shift = new int[256];
+
+        private HorspoolMatcher(byte[] pattern) {
+            this.pattern = pattern;
+            int length = pattern.length;
+            for (int i = 0; i < shift.length; i++) {
+                shift[i] = length;
+            }
+            for (int i = 0; i < length - 1; i++) {
+                shift[pattern[i] & 0xff] = length - 1 - i;
+            }
+        }
+
+        @Override
+        public int find(ByteBuffer buffer, int from, int to) {
+            int last = pattern.length - 1;
+            byte tail = pattern[last];
+            int i = from;
+            while (i + last < to) {
+                byte b = buffer.get(i + last);
+                if (b == tail) {
+                    int j = last - 1;
+                    while (j >= 0 && buffer.get(i + j) == pattern[j]) {
+                        j--;
+                    }
+                    if (j < 0) {
+                        return i;
+                    }
+                }
+                i += shift[b & 0xff];
+            }
+            return -1;
+        }
+
+    }
+
+    private static class AhoCorasickMatcher implements Matcher {
+
+        private final int[] transitions;
+        private final boolean[] accepting;
+
+        private AhoCorasickMatcher(List<byte[]> patterns) {
+            List<int[]> trie = new ArrayList<>();
+            List<Boolean> outputs = new ArrayList<>();
+            trie.add(new int[256]);
+            outputs.add(false);
+            for (byte[] pattern : patterns) {
+                int state = 0;
+                for (byte b : pattern) {
+                    int c = b & 0xff;
+                    if (trie.get(state)[c] == 0) {
+                        trie.get(state)[c] = trie.size();
+                        trie.add(new int[256]);
+                        outputs.add(false);
+                    }
+                    state = trie.get(state)[c];
+                }
+                outputs.set(state, true);
+            }
+            int states = trie.size();
+            int[] failure = new int[states];
+            accepting = new boolean[states];
+            for (int i = 0; i < states; i++) {
+                accepting[i] = outputs.get(i);
+            }
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int c = 0; c < 256; c++) {
+                int next = trie.get(0)[c];
+                if (next != 0) {
+                    queue.add(next);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                int[] row = trie.get(state);
+                int[] fallback = trie.get(failure[state]);
+                accepting[state] |= accepting[failure[state]];
+                for (int c = 0; c < 256; c++) {
+                    if (row[c] != 0) {
+                        failure[row[c]] = fallback[c];
+                        queue.add(row[c]);
+                    } else {
+                        row[c] = fallback[c];
+                    }
+                }
+            }
+            transitions = new int[states * 256];
+            for (int i = 0; i < states; i++) {
+                System.arraycopy(trie.get(i), 0, transitions, i * 256, 256);
+            }
+        }
+
+        @Override
+        public int find(ByteBuffer buffer, int from, int to) {
+            int state = 0;
+            for (int i = from; i < to; i++) {
+                state = transitions[(state << 8) | (buffer.get(i) & 0xff)];
+                if (accepting[state]) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,32 @@
+package io.ljunggren.file.utils;
+
+public class RecordEntry {
+
+    private final long offset;
+    private final long nextOffset;
+    private final byte[] data;
+
+    RecordEntry(long offset, long nextOffset, byte[] data) {
+        this.offset = offset;
+        this.nextOffset = nextOffset;
+        this.data = data;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return offset + ":" + data.length;
+    }
+
+}
@@ -0,0 +1,31 @@
+package io.ljunggren.file.utils;
+
+import java.io.IOException;
+
+public class RecordReader {
+
+    private final RecordStore store;
+    private long offset;
+
+    RecordReader(RecordStore store, long offset) {
+        this.store = store;
+        this.offset = offset;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public boolean hasNext() {
+        return offset < store.getEndOffset();
+    }
+
+    public RecordEntry next() throws IOException {
+        RecordEntry entry = store.read(offset);
+        if (entry != null) {
+            offset = entry.getNextOffset();
+        }
+        return entry;
+    }
+
+}
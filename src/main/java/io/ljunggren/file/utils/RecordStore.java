@@ -0,0 +1,290 @@
+package io.ljunggren.file.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+public class RecordStore implements Closeable {
+
+    public static final String SEGMENT_EXTENSION = ".seg";
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int PREALLOCATE_CHUNK = 1 << 20;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private Segment active;
+    private volatile long endOffset;
+    private volatile boolean closed = false;
+
+    public RecordStore(String directory) throws IOException {
+        this(directory == null ? null : Paths.get(directory));
+    }
+
+    public RecordStore(File directory) throws IOException {
+        this(directory == null ? null : directory.toPath());
+    }
+
+    public RecordStore(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public RecordStore(Path directory, int segmentSize) throws IOException {
+        if (directory == null) {
+            throw new IOException("Directory is null");
+        }
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size is too small");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        recover();
+    }
+
+    public long getStartOffset() {
+        return segments.firstKey();
+    }
+
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    public long append(String content) throws IOException {
+        return append(content == null ? null : content.getBytes(Charset.defaultCharset()));
+    }
+
+    public synchronized long append(byte[] data) throws IOException {
+        if (closed) {
+            throw new IOException("Store is closed");
+        }
+        if (data == null) {
+            throw new IOException("Record is null");
+        }
+        if (HEADER_SIZE + (long) data.length > segmentSize) {
+            throw new IOException("Record exceeds segment size");
+        }
+        int size = HEADER_SIZE + data.length;
+        if (active.limit + (long) size > active.capacity) {
+            roll();
+        }
+        int position = active.limit;
+        ByteBuffer buffer = active.buffer.duplicate();
+        ((Buffer) buffer).position(position + HEADER_SIZE);
+        buffer.put(data);
+        active.buffer.putInt(position + 4, checksum(data.length, data));
+        active.buffer.putInt(position, data.length);
+        active.limit = position + size;
+        endOffset = active.base + active.limit;
+        return active.base + position;
+    }
+
+    public RecordEntry read(long offset) throws IOException {
+        if (closed) {
+            throw new IOException("Store is closed");
+        }
+        long end = endOffset;
+        if (offset == end) {
+            return null;
+        }
+        Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+        if (entry == null || offset > end) {
+            throw new IOException("Offset is out of range");
+        }
+        Segment segment = entry.getValue();
+        int position = (int) (offset - segment.base);
+        if (position == segment.limit) {
+            entry = segments.higherEntry(segment.base);
+            if (entry == null) {
+                return null;
+            }
+            segment = entry.getValue();
+            position = 0;
+        }
+        int length = segment.buffer.getInt(position);
+        if (length < 0 || position + HEADER_SIZE + (long) length > segment.limit) {
+            throw new IOException("Record is corrupt at offset " + offset);
+        }
+        byte[] data = new byte[length];
+        ByteBuffer buffer = segment.buffer.duplicate();
+        ((Buffer) buffer).position(position + HEADER_SIZE);
+        buffer.get(data);
+        if (segment.buffer.getInt(position + 4) != checksum(length, data)) {
+            throw new IOException("Record is corrupt at offset " + offset);
+        }
+        long start = segment.base + position;
+        return new RecordEntry(start, start + HEADER_SIZE + length, data);
+    }
+
+    public RecordReader reader() {
+        return reader(getStartOffset());
+    }
+
+    public RecordReader reader(long offset) {
+        return new RecordReader(this, offset);
+    }
+
+    public synchronized void flush() throws IOException {
+        if (closed) {
+            throw new IOException("Store is closed");
+        }
+        active.buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        active.buffer.force();
+        closed = true;
+    }
+
+    private void recover() throws IOException {
+        List<File> files = FileUtils.filterBySuffix(FileUtils.listFiles(directory), SEGMENT_EXTENSION).stream()
+                .filter(file -> file.getName().matches("\\d+\\" + SEGMENT_EXTENSION))
+                .collect(Collectors.toList());
+        files.sort((f1, f2) -> Long.compare(baseOffset(f1), baseOffset(f2)));
+        Segment previous = null;
+        for (int i = 0; i < files.size(); i++) {
+            File file = files.get(i);
+            boolean last = i == files.size() - 1;
+            Segment segment = map(file.toPath(), baseOffset(file), last);
+            if (previous != null) {
+                previous.limit = (int) (segment.base - previous.base);
+            }
+            segments.put(segment.base, segment);
+            previous = segment;
+        }
+        if (previous == null) {
+            previous = map(segmentPath(0), 0, true);
+            segments.put(previous.base, previous);
+        }
+        active = previous;
+        active.limit = recoverTail(active);
+        endOffset = active.base + active.limit;
+    }
+
+    private int recoverTail(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_SIZE <= segment.capacity) {
+            int length = buffer.getInt(position);
+            if (length < 0 || position + HEADER_SIZE + (long) length > segment.capacity) {
+                break;
+            }
+            byte[] data = new byte[length];
+            ByteBuffer record = buffer.duplicate();
+            ((Buffer) record).position(position + HEADER_SIZE);
+            record.get(data);
+            if (buffer.getInt(position + 4) != checksum(length, data)) {
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+        clear(buffer, position, segment.capacity);
+        return position;
+    }
+
+    private static void clear(MappedByteBuffer buffer, int from, int to) {
+        int i = from;
+        for (; i < to && (i & 7) != 0; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        for (; i + 8 <= to; i += 8) {
+            if (buffer.getLong(i) != 0) {
+                buffer.putLong(i, 0);
+            }
+        }
+        for (; i < to; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    private void roll() throws IOException {
+        active.buffer.force();
+        long base = active.base + active.limit;
+        Path path = segmentPath(base);
+        Segment segment;
+        try {
+            segment = map(path, base, true);
+        } catch (IOException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        segments.put(segment.base, segment);
+        active = segment;
+    }
+
+    private Segment map(Path path, long base, boolean writable) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), writable ? "rw" : "r")) {
+            if (writable && file.length() < segmentSize) {
+                preallocate(file.getChannel(), file.length());
+            }
+            MapMode mode = writable ? MapMode.READ_WRITE : MapMode.READ_ONLY;
+            return new Segment(base, file.getChannel().map(mode, 0, file.length()));
+        }
+    }
+
+    private void preallocate(FileChannel channel, long from) throws IOException {
+        ByteBuffer zeros = ByteBuffer.allocate(PREALLOCATE_CHUNK);
+        long position = from;
+        while (position < segmentSize) {
+            ((Buffer) zeros).clear();
+            ((Buffer) zeros).limit((int) Math.min(PREALLOCATE_CHUNK, segmentSize - position));
+            position += channel.write(zeros, position);
+        }
+        channel.force(true);
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d", base) + SEGMENT_EXTENSION);
+    }
+
+    private static long baseOffset(File file) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_EXTENSION.length()));
+    }
+
+    private static int checksum(int length, byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(length >>> 24);
+        crc.update(length >>> 16);
+        crc.update(length >>> 8);
+        crc.update(length);
+        crc.update(data, 0, data.length);
+        return (int) crc.getValue();
+    }
+
+    private static class Segment {
+
+        private final long base;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private volatile int limit;
+
+        private Segment(long base, MappedByteBuffer buffer) {
+            this.base = base;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+    }
+
+}
@@ -0,0 +1,392 @@
+package io.ljunggren.file.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+public class RotatingFileWriter implements Closeable {
+
+    public static final String COMPRESSED_EXTENSION = ".gz";
+
+    private static final DateTimeFormatter ROTATED_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final Path path;
+    private final Pattern rotatedPattern;
+    private final Charset charset;
+    private final ExecutorService rotator = newExecutor("rotating-file-writer");
+    private final ExecutorService archiver = newExecutor("rotating-file-archiver");
+    private final AtomicBoolean rolling = new AtomicBoolean(false);
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    private volatile Segment current;
+    private volatile boolean closed = false;
+    private volatile long maxSize = 0;
+    private volatile long interval = 0;
+    private volatile boolean compress = false;
+    private volatile int maxFiles = 0;
+    private volatile long maxAge = 0;
+    private volatile LongSupplier clock = System::currentTimeMillis;
+
+    public RotatingFileWriter(String path) throws IOException {
+        this(path == null ? null : Paths.get(path));
+    }
+
+    public RotatingFileWriter(File file) throws IOException {
+        this(file == null ? null : file.toPath());
+    }
+
+    public RotatingFileWriter(Path path) throws IOException {
+        this(path, Charset.defaultCharset());
+    }
+
+    public RotatingFileWriter(Path path, Charset charset) throws IOException {
+        if (path == null) {
+            throw new IOException("Path is null");
+        }
+        if (charset == null) {
+            throw new IllegalArgumentException("Charset is null");
+        }
+        this.path = path.toAbsolutePath();
+        this.rotatedPattern = Pattern.compile(Pattern.quote(this.path.getFileName().toString())
+                + "\\.(\\d{8}-\\d{6}-\\d{3})(?:-(\\d+))?(?:" + Pattern.quote(COMPRESSED_EXTENSION) + ")?");
+        this.charset = charset;
+        this.current = open();
+    }
+
+    public RotatingFileWriter maxSize(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Max size is negative");
+        }
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    public RotatingFileWriter interval(Duration interval) {
+        this.interval = interval == null ? 0 : interval.toMillis();
+        return this;
+    }
+
+    public RotatingFileWriter compress(boolean compress) {
+        this.compress = compress;
+        return this;
+    }
+
+    public RotatingFileWriter maxFiles(int maxFiles) {
+        if (maxFiles < 0) {
+            throw new IllegalArgumentException("Max files is negative");
+        }
+        this.maxFiles = maxFiles;
+        return this;
+    }
+
+    public RotatingFileWriter maxAge(Duration maxAge) {
+        this.maxAge = maxAge == null ? 0 : maxAge.toMillis();
+        return this;
+    }
+
+    RotatingFileWriter clock(LongSupplier clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public void write(String content) throws IOException {
+        write(content == null ? new byte[] {} : content.getBytes(charset));
+    }
+
+    public void writeLine(String content) throws IOException {
+        write((content == null ? "" : content) + FileUtils.NEW_LINE);
+    }
+
+    public void write(byte[] bytes) throws IOException {
+        if (closed) {
+            throw new IOException("Writer is closed");
+        }
+        checkFailure();
+        if (bytes == null || bytes.length == 0) {
+            return;
+        }
+        Segment segment = acquire();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                segment.channel.write(buffer);
+            }
+            long size = segment.size.addAndGet(bytes.length);
+            if (isDue(segment, size)) {
+                rollover(segment);
+            }
+        } finally {
+            segment.release();
+        }
+    }
+
+    public void flush() throws IOException {
+        Segment segment = acquire();
+        try {
+            segment.channel.force(false);
+        } finally {
+            segment.release();
+        }
+        checkFailure();
+    }
+
+    public void rollover() {
+        rollover(current);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        shutdown(rotator);
+        current.release();
+        shutdown(archiver);
+        checkFailure();
+    }
+
+    ExecutorService getRotator() {
+        return rotator;
+    }
+
+    ExecutorService getArchiver() {
+        return archiver;
+    }
+
+    private static ExecutorService newExecutor(String name) {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static void shutdown(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        IOException error = failure.getAndSet(null);
+        if (error != null) {
+            throw new IOException("Rollover failed", error);
+        }
+    }
+
+    private Segment acquire() throws IOException {
+        while (true) {
+            Segment segment = current;
+            if (segment.acquire()) {
+                return segment;
+            }
+            if (closed && segment == current) {
+                throw new IOException("Writer is closed");
+            }
+        }
+    }
+
+    private boolean isDue(Segment segment, long size) {
+        if (maxSize > 0 && size >= maxSize) {
+            return true;
+        }
+        return interval > 0 && clock.getAsLong() - segment.openedAt >= interval;
+    }
+
+    private void rollover(Segment segment) {
+        if (closed || !rolling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            rotator.execute(() -> {
+                try {
+                    rotate(segment);
+                } catch (IOException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    rolling.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rolling.set(false);
+        }
+    }
+
+    private void rotate(Segment segment) throws IOException {
+        if (segment != current || segment.size.get() == 0) {
+            return;
+        }
+        Path target = rotatedPath();
+        Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+        Segment next;
+        try {
+            next = open();
+        } catch (IOException e) {
+            Files.move(target, path, StandardCopyOption.ATOMIC_MOVE);
+            throw e;
+        }
+        current = next;
+        segment.rotatedTo = target;
+        segment.release();
+    }
+
+    private Segment open() throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        try {
+            long openedAt = clock.getAsLong();
+            if (channel.size() > 0) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                openedAt = Math.min(attributes.creationTime().toMillis(), attributes.lastModifiedTime().toMillis());
+            }
+            return new Segment(channel, openedAt);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private Path rotatedPath() {
+        String name = path.getFileName() + "." + LocalDateTime.now().format(ROTATED_FORMAT);
+        Path target = path.resolveSibling(name);
+        for (int i = 1; Files.exists(target) || Files.exists(target.resolveSibling(name + COMPRESSED_EXTENSION)); i++) {
+            target = path.resolveSibling(name + "-" + i);
+        }
+        return target;
+    }
+
+    private void retired(Path rotated) {
+        Runnable task = () -> {
+            try {
+                if (compress) {
+                    compress(rotated);
+                }
+                enforceRetention();
+            } catch (IOException e) {
+                failure.compareAndSet(null, e);
+            }
+        };
+        try {
+            archiver.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    private void compress(Path rotated) throws IOException {
+        Path target = rotated.resolveSibling(rotated.getFileName() + COMPRESSED_EXTENSION);
+        FileTime lastModified = Files.getLastModifiedTime(rotated);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+            Files.copy(rotated, out);
+        }
+        Files.setLastModifiedTime(target, lastModified);
+        Files.delete(rotated);
+    }
+
+    private void enforceRetention() throws IOException {
+        if (maxFiles == 0 && maxAge == 0) {
+            return;
+        }
+        List<File> rotated = FileUtils.listFiles(path.getParent()).stream()
+                .filter(file -> rotatedPattern.matcher(file.getName()).matches())
+                .collect(Collectors.toList());
+        rotated.sort((f1, f2) -> {
+            int comparison = Long.compare(f2.lastModified(), f1.lastModified());
+            return comparison != 0 ? comparison : compareRotated(f2.getName(), f1.getName());
+        });
+        long oldest = clock.getAsLong() - maxAge;
+        for (int i = 0; i < rotated.size(); i++) {
+            File file = rotated.get(i);
+            if ((maxFiles > 0 && i >= maxFiles) || (maxAge > 0 && file.lastModified() < oldest)) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+    }
+
+    private int compareRotated(String name1, String name2) {
+        Matcher matcher1 = rotatedPattern.matcher(name1);
+        Matcher matcher2 = rotatedPattern.matcher(name2);
+        matcher1.matches();
+        matcher2.matches();
+        int comparison = matcher1.group(1).compareTo(matcher2.group(1));
+        return comparison != 0 ? comparison : Long.compare(sequence(matcher1), sequence(matcher2));
+    }
+
+    private static long sequence(Matcher matcher) {
+        return matcher.group(2) == null ? 0 : Long.parseLong(matcher.group(2));
+    }
+
+    private class Segment {
+
+        private final FileChannel channel;
+        private final long openedAt;
+        private final AtomicLong size;
+        private final AtomicInteger users = new AtomicInteger(1);
+        private volatile Path rotatedTo;
+
+        private Segment(FileChannel channel, long openedAt) throws IOException {
+            this.channel = channel;
+            this.openedAt = openedAt;
+            this.size = new AtomicLong(channel.size());
+        }
+
+        private boolean acquire() {
+            while (true) {
+                int count = users.get();
+                if (count == 0) {
+                    return false;
+                }
+                if (users.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void release() throws IOException {
+            if (users.decrementAndGet() > 0) {
+                return;
+            }
+            channel.close();
+            if (rotatedTo != null) {
+                retired(rotatedTo);
+            }
+        }
+
+    }
+
+}
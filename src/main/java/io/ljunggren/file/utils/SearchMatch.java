@@ -0,0 +1,52 @@
+package io.ljunggren.file.utils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class SearchMatch {
+
+    private final Path path;
+    private final long lineNumber;
+    private final String line;
+    private final List<String> before;
+    private final List<String> after = new ArrayList<>();
+
+    SearchMatch(Path path, long lineNumber, String line, List<String> before) {
+        this.path = path;
+        this.lineNumber = lineNumber;
+        this.line = line;
+        this.before = before;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getLine() {
+        return line;
+    }
+
+    public List<String> getBefore() {
+        return Collections.unmodifiableList(before);
+    }
+
+    public List<String> getAfter() {
+        return Collections.unmodifiableList(after);
+    }
+
+    void addAfter(String line) {
+        after.add(line);
+    }
+
+    @Override
+    public String toString() {
+        return path + ":" + lineNumber + ":" + line;
+    }
+
+}
@@ -0,0 +1,46 @@
+package io.ljunggren.file.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class SnapshotDiff {
+
+    private final List<String> added = new ArrayList<>();
+    private final List<String> removed = new ArrayList<>();
+    private final List<String> modified = new ArrayList<>();
+
+    public List<String> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    public List<String> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+
+    public List<String> getModified() {
+        return Collections.unmodifiableList(modified);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+    }
+
+    void addAdded(String path) {
+        added.add(path);
+    }
+
+    void addRemoved(String path) {
+        removed.add(path);
+    }
+
+    void addModified(String path) {
+        modified.add(path);
+    }
+
+    @Override
+    public String toString() {
+        return added.size() + " added, " + removed.size() + " removed, " + modified.size() + " modified";
+    }
+
+}
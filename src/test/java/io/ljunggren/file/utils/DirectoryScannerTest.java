@@ -0,0 +1,141 @@
+package io.ljunggren.file.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DirectoryScannerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File root;
+    private File oldest;
+    private File newest;
+
+    private File createFile(File directory, String name, String content, long lastModified) throws IOException {
+        File file = new File(directory, name);
+        FileUtils.createFile(file.getAbsolutePath(), content);
+        file.setLastModified(lastModified);
+        return file;
+    }
+
+    @Before
+    public void setup() throws IOException {
+        long now = System.currentTimeMillis();
+        root = temporaryFolder.newFolder("root");
+        File logs = temporaryFolder.newFolder("root", "logs");
+        File archive = temporaryFolder.newFolder("root", "logs", "archive");
+        File docs = temporaryFolder.newFolder("root", "docs");
+        temporaryFolder.newFolder("root", "empty");
+        createFile(root, "README", "readme", now - 5000);
+        createFile(logs, "app.log", "0123456789", now - 4000);
+        createFile(logs, "web.log", "01234", now - 3000);
+        oldest = createFile(archive, "app.log.gz", "012", now - 100000);
+        createFile(archive, "web.log.gz", "0", now - 50000);
+        newest = createFile(docs, "guide.txt", "guide", now);
+    }
+
+    private DirectoryStats child(DirectoryStats stats, String name) {
+        return stats.getChildren().stream()
+                .filter(child -> child.getPath().getFileName().toString().equals(name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Test
+    public void scanTest() throws IOException {
+        DirectoryStats stats = new DirectoryScanner().scan(root);
+        assertEquals(6, stats.getFileCount());
+        assertEquals(4, stats.getDirectoryCount());
+        assertEquals(30, stats.getSize());
+        assertEquals(0, stats.getErrorCount());
+        assertEquals(oldest.toPath(), stats.getOldestFile());
+        assertEquals(newest.toPath(), stats.getNewestFile());
+        assertEquals(newest.lastModified(), stats.getNewestModified());
+    }
+
+    @Test
+    public void scanSymbolicLinkTest() throws IOException {
+        Path link = temporaryFolder.getRoot().toPath().resolve("link");
+        Files.createSymbolicLink(link, root.toPath());
+        DirectoryStats stats = new DirectoryScanner().scan(link);
+        assertEquals(6, stats.getFileCount());
+        assertEquals(4, stats.getDirectoryCount());
+        assertEquals(30, stats.getSize());
+        assertEquals(link, stats.getPath());
+        assertEquals(link.resolve("docs").resolve("guide.txt"), stats.getNewestFile());
+    }
+
+    @Test
+    public void scanExtensionsTest() throws IOException {
+        DirectoryStats stats = new DirectoryScanner().scan(root.getAbsolutePath());
+        assertEquals(2, (long) stats.getExtensionCounts().get("log"));
+        assertEquals(15, (long) stats.getExtensionSizes().get("log"));
+        assertEquals(2, (long) stats.getExtensionCounts().get("gz"));
+        assertEquals(1, (long) stats.getExtensionCounts().get("txt"));
+        assertEquals(1, (long) stats.getExtensionCounts().get(""));
+    }
+
+    @Test
+    public void scanChildrenTest() throws IOException {
+        DirectoryStats stats = new DirectoryScanner().scan(root);
+        assertEquals(3, stats.getChildren().size());
+        DirectoryStats logs = child(stats, "logs");
+        assertEquals(4, logs.getFileCount());
+        assertEquals(1, logs.getDirectoryCount());
+        assertEquals(19, logs.getSize());
+        assertEquals(1, logs.getDepth());
+        DirectoryStats archive = child(logs, "archive");
+        assertEquals(2, archive.getFileCount());
+        assertEquals(2, archive.getDepth());
+        assertEquals(0, child(stats, "empty").getFileCount());
+        assertNull(child(stats, "empty").getOldestFile());
+    }
+
+    @Test
+    public void scanMaxDepthTest() throws IOException {
+        DirectoryStats stats = new DirectoryScanner().maxDepth(1).scan(root);
+        assertEquals(6, stats.getFileCount());
+        assertEquals(3, stats.getChildren().size());
+        assertTrue(child(stats, "logs").getChildren().isEmpty());
+        assertEquals(4, child(stats, "logs").getFileCount());
+    }
+
+    @Test
+    public void scanMinFileCountTest() throws IOException {
+        DirectoryStats stats = new DirectoryScanner().minFileCount(2).scan(root);
+        assertEquals(6, stats.getFileCount());
+        assertEquals(1, stats.getChildren().size());
+        assertEquals(1, child(stats, "logs").getChildren().size());
+    }
+
+    @Test
+    public void scanParallelismTest() throws IOException {
+        DirectoryStats stats = new DirectoryScanner().parallelism(2).scan(root);
+        assertEquals(6, stats.getFileCount());
+        assertEquals(4, stats.getDirectoryCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void scanNotDirectoryTest() throws IOException {
+        new DirectoryScanner().scan(newest);
+    }
+
+    @Test(expected = IOException.class)
+    public void scanNullTest() throws IOException {
+        Path path = null;
+        new DirectoryScanner().scan(path);
+    }
+
+}
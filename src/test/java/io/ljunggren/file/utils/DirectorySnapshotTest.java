@@ -0,0 +1,240 @@
+package io.ljunggren.file.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DirectorySnapshotTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path root;
+
+    private void createFile(String path, String content) throws IOException {
+        File file = root.resolve(path).toFile();
+        file.getParentFile().mkdirs();
+        FileUtils.createFile(file.getAbsolutePath(), content);
+        file.setLastModified(1600000000000L);
+    }
+
+    @Before
+    public void setup() throws IOException {
+        root = temporaryFolder.newFolder("root").toPath();
+        createFile("a.txt", "a");
+        createFile("b/b.txt", "bb");
+        createFile("b/c/c.txt", "ccc");
+        createFile("d.txt", "dddd");
+    }
+
+    @Test
+    public void takeTest() throws IOException {
+        DirectorySnapshot snapshot = DirectorySnapshot.take(root);
+        assertEquals(4, snapshot.getFileCount());
+        assertFalse(snapshot.isHashed());
+        assertEquals("a.txt", snapshot.getPath(0));
+        assertEquals("b/b.txt", snapshot.getPath(1));
+        assertEquals("b/c/c.txt", snapshot.getPath(2));
+        assertEquals("d.txt", snapshot.getPath(3));
+        int index = snapshot.indexOf("b/c/c.txt");
+        assertEquals(3, snapshot.getSize(index));
+        assertEquals(1600000000000L, snapshot.getLastModified(index));
+        assertEquals(-1, snapshot.indexOf("missing.txt"));
+    }
+
+    @Test
+    public void takeSymbolicLinkTest() throws IOException {
+        Path link = temporaryFolder.getRoot().toPath().resolve("link");
+        Files.createSymbolicLink(link, root);
+        DirectorySnapshot snapshot = DirectorySnapshot.take(link);
+        assertEquals(4, snapshot.getFileCount());
+        assertTrue(DirectorySnapshot.take(root).diff(snapshot).isEmpty());
+    }
+
+    @Test
+    public void diffTest() throws IOException {
+        DirectorySnapshot before = DirectorySnapshot.take(root);
+        createFile("b/b.txt", "changed");
+        createFile("e.txt", "e");
+        FileUtils.deleteFile(root.resolve("a.txt"));
+        DirectorySnapshot after = DirectorySnapshot.take(root);
+        SnapshotDiff diff = before.diff(after);
+        assertEquals(Arrays.asList("e.txt"), diff.getAdded());
+        assertEquals(Arrays.asList("a.txt"), diff.getRemoved());
+        assertEquals(Arrays.asList("b/b.txt"), diff.getModified());
+    }
+
+    @Test
+    public void diffUnchangedTest() throws IOException {
+        DirectorySnapshot before = DirectorySnapshot.take(root);
+        DirectorySnapshot after = DirectorySnapshot.take(root);
+        assertTrue(before.diff(after).isEmpty());
+    }
+
+    @Test
+    public void diffModifiedTimeTest() throws IOException {
+        DirectorySnapshot before = DirectorySnapshot.take(root);
+        root.resolve("d.txt").toFile().setLastModified(1700000000000L);
+        DirectorySnapshot after = DirectorySnapshot.take(root);
+        assertEquals(Arrays.asList("d.txt"), before.diff(after).getModified());
+    }
+
+    @Test
+    public void diffHashedTest() throws IOException {
+        DirectorySnapshot before = DirectorySnapshot.take(root, true);
+        root.resolve("d.txt").toFile().setLastModified(1700000000000L);
+        createFile("a.txt", "z");
+        DirectorySnapshot after = DirectorySnapshot.take(root, true);
+        assertEquals(Arrays.asList("a.txt"), before.diff(after).getModified());
+    }
+
+    @Test
+    public void takeIncrementalTest() throws IOException {
+        DirectorySnapshot before = DirectorySnapshot.take(root, true);
+        DirectorySnapshot after = DirectorySnapshot.take(root, true, before);
+        for (int i = 0; i < after.getFileCount(); i++) {
+            assertEquals(before.getHash(i), after.getHash(i));
+        }
+        createFile("a.txt", "zz");
+        DirectorySnapshot changed = DirectorySnapshot.take(root, true, after);
+        int index = changed.indexOf("a.txt");
+        assertTrue(changed.getHash(index) != after.getHash(after.indexOf("a.txt")));
+    }
+
+    @Test
+    public void takeIncrementalReusesHashTest() throws IOException {
+        DirectorySnapshot previous = DirectorySnapshot.take(root, true);
+        long hash = previous.getHash(previous.indexOf("a.txt"));
+        createFile("a.txt", "z");
+        DirectorySnapshot incremental = DirectorySnapshot.take(root, true, previous);
+        assertEquals(hash, incremental.getHash(incremental.indexOf("a.txt")));
+        DirectorySnapshot full = DirectorySnapshot.take(root, true);
+        assertTrue(hash != full.getHash(full.indexOf("a.txt")));
+    }
+
+    @Test
+    public void takeSkipsVanishedFilesTest() throws IOException {
+        Path vanished = root.resolve("vanished.txt");
+        FileUtils.createFile(vanished.toString(), "gone");
+        DirectorySnapshot.Listing listing = new DirectorySnapshot.Listing();
+        listing.add("vanished.txt".getBytes(StandardCharsets.UTF_8), 4, 1600000000000L);
+        listing.add("a.txt".getBytes(StandardCharsets.UTF_8), 1, 1600000000000L);
+        FileUtils.deleteFile(vanished);
+        DirectorySnapshot snapshot = DirectorySnapshot.build(root, listing, true, null, 0);
+        assertEquals(1, snapshot.getFileCount());
+        assertEquals("a.txt", snapshot.getPath(0));
+        assertEquals(1, snapshot.getErrorCount());
+    }
+
+    @Test
+    public void buildSortsPathsTest() {
+        DirectorySnapshot.Listing listing = new DirectorySnapshot.Listing();
+        for (int i = 2999; i >= 0; i--) {
+            int file = (i * 7919) % 3000;
+            listing.add(String.format("dir/%04d.txt", file).getBytes(StandardCharsets.UTF_8), file, 1600000000000L + file);
+        }
+        DirectorySnapshot snapshot = DirectorySnapshot.build(root, listing, false, null, 0);
+        assertEquals(3000, snapshot.getFileCount());
+        for (int i = 0; i < 3000; i++) {
+            assertEquals(String.format("dir/%04d.txt", i), snapshot.getPath(i));
+            assertEquals(i, snapshot.getSize(i));
+            assertEquals(1600000000000L + i, snapshot.getLastModified(i));
+        }
+    }
+
+    @Test
+    public void saveLoadTest() throws IOException {
+        DirectorySnapshot snapshot = DirectorySnapshot.take(root, true);
+        Path file = temporaryFolder.getRoot().toPath().resolve("root.snapshot");
+        snapshot.save(file);
+        DirectorySnapshot loaded = DirectorySnapshot.load(file);
+        assertEquals(snapshot.getFileCount(), loaded.getFileCount());
+        assertTrue(loaded.isHashed());
+        for (int i = 0; i < snapshot.getFileCount(); i++) {
+            assertEquals(snapshot.getPath(i), loaded.getPath(i));
+            assertEquals(snapshot.getSize(i), loaded.getSize(i));
+            assertEquals(snapshot.getLastModified(i), loaded.getLastModified(i));
+            assertEquals(snapshot.getHash(i), loaded.getHash(i));
+        }
+        assertTrue(snapshot.diff(loaded).isEmpty());
+    }
+
+    @Test
+    public void saveLoadEmptyTest() throws IOException {
+        Path empty = temporaryFolder.newFolder("empty").toPath();
+        Path file = temporaryFolder.getRoot().toPath().resolve("empty.snapshot");
+        DirectorySnapshot.take(empty).save(file);
+        DirectorySnapshot loaded = DirectorySnapshot.load(file.toString());
+        assertEquals(0, loaded.getFileCount());
+        assertEquals(Arrays.asList("a.txt", "b/b.txt", "b/c/c.txt", "d.txt"),
+                loaded.diff(DirectorySnapshot.take(root)).getAdded());
+        assertEquals(Collections.emptyList(), loaded.diff(DirectorySnapshot.take(root)).getRemoved());
+    }
+
+    @Test(expected = IOException.class)
+    public void loadInvalidTest() throws IOException {
+        File file = temporaryFolder.newFile("invalid.snapshot");
+        FileUtils.writeToFile(file.getAbsolutePath(), "not a snapshot");
+        DirectorySnapshot.load(file.toPath());
+    }
+
+    private Path writeSnapshot(int count, int... entry) throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("corrupt.snapshot");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(0x534e4150);
+            out.writeInt(1);
+            out.writeBoolean(false);
+            out.writeInt(count);
+            for (int b : entry) {
+                out.writeByte(b);
+            }
+        }
+        return file;
+    }
+
+    @Test(expected = IOException.class)
+    public void loadNegativeCountTest() throws IOException {
+        DirectorySnapshot.load(writeSnapshot(-1));
+    }
+
+    @Test(expected = IOException.class)
+    public void loadHugeCountTest() throws IOException {
+        DirectorySnapshot.load(writeSnapshot(Integer.MAX_VALUE, 0, 1, 'a', 1, 1));
+    }
+
+    @Test(expected = IOException.class)
+    public void loadInvalidSharedPrefixTest() throws IOException {
+        DirectorySnapshot.load(writeSnapshot(2, 0, 1, 'a', 1, 1, 5, 1, 'b', 1, 1));
+    }
+
+    @Test(expected = IOException.class)
+    public void loadTruncatedTest() throws IOException {
+        DirectorySnapshot.load(writeSnapshot(1, 0, 100, 'a'));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getHashNotHashedTest() throws IOException {
+        DirectorySnapshot.take(root).getHash(0);
+    }
+
+    @Test(expected = IOException.class)
+    public void takeNullTest() throws IOException {
+        Path path = null;
+        DirectorySnapshot.take(path);
+    }
+
+}
@@ -0,0 +1,212 @@
+package io.ljunggren.file.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileSearchTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File createFile(String name, List<String> lines) throws IOException {
+        File file = temporaryFolder.newFile(name);
+        FileUtils.writeToFile(file.getAbsolutePath(), String.join("\n", lines));
+        return file;
+    }
+
+    @Test
+    public void searchTest() throws IOException {
+        File file = createFile("test.log", Arrays.asList("INFO started", "ERROR failed", "INFO done", "ERROR again"));
+        List<SearchMatch> matches = new FileSearch("ERROR").search(file);
+        assertEquals(2, matches.size());
+        assertEquals(2, matches.get(0).getLineNumber());
+        assertEquals("ERROR failed", matches.get(0).getLine());
+        assertEquals(4, matches.get(1).getLineNumber());
+        assertEquals("ERROR again", matches.get(1).getLine());
+    }
+
+    @Test
+    public void searchNoMatchTest() throws IOException {
+        File file = createFile("test.log", Arrays.asList("INFO started", "INFO done"));
+        assertTrue(new FileSearch("ERROR").search(file).isEmpty());
+    }
+
+    @Test
+    public void searchEmptyFileTest() throws IOException {
+        File file = temporaryFolder.newFile("test.log");
+        assertTrue(new FileSearch("ERROR").search(file).isEmpty());
+    }
+
+    @Test
+    public void searchMultiplePatternsTest() throws IOException {
+        File file = createFile("test.log", Arrays.asList("INFO started", "WARN slow", "ERROR failed", "INFO done"));
+        List<SearchMatch> matches = new FileSearch("ERROR", "WARN").search(file);
+        assertEquals(2, matches.size());
+        assertEquals("WARN slow", matches.get(0).getLine());
+        assertEquals("ERROR failed", matches.get(1).getLine());
+    }
+
+    @Test
+    public void searchOverlappingPatternsTest() throws IOException {
+        File file = createFile("test.log", Arrays.asList("abc", "xbcd", "bc", "cd"));
+        List<SearchMatch> matches = new FileSearch("abcd", "bcd", "c").search(file);
+        assertEquals(4, matches.size());
+    }
+
+    @Test
+    public void searchMatchOncePerLineTest() throws IOException {
+        File file = createFile("test.log", Arrays.asList("ERROR ERROR ERROR"));
+        assertEquals(1, new FileSearch("ERROR").search(file).size());
+    }
+
+    @Test
+    public void searchCarriageReturnTest() throws IOException {
+        File file = temporaryFolder.newFile("test.log");
+        FileUtils.writeToFile(file.getAbsolutePath(), "INFO started\r\nERROR failed\r\n");
+        List<SearchMatch> matches = new FileSearch("ERROR").search(file);
+        assertEquals(1, matches.size());
+        assertEquals("ERROR failed", matches.get(0).getLine());
+    }
+
+    @Test
+    public void searchContextLinesTest() throws IOException {
+        File file = createFile("test.log", Arrays.asList("one", "two", "ERROR three", "four", "five", "six"));
+        List<SearchMatch> matches = new FileSearch("ERROR").contextLines(2).search(file);
+        assertEquals(1, matches.size());
+        assertEquals(Arrays.asList("one", "two"), matches.get(0).getBefore());
+        assertEquals(Arrays.asList("four", "five"), matches.get(0).getAfter());
+    }
+
+    @Test
+    public void searchContextLinesAtEdgesTest() throws IOException {
+        File file = createFile("test.log", Arrays.asList("ERROR one", "two", "ERROR three"));
+        List<SearchMatch> matches = new FileSearch("ERROR").contextLines(2).search(file);
+        assertEquals(2, matches.size());
+        assertTrue(matches.get(0).getBefore().isEmpty());
+        assertEquals(Arrays.asList("two", "ERROR three"), matches.get(0).getAfter());
+        assertEquals(Arrays.asList("ERROR one", "two"), matches.get(1).getBefore());
+        assertTrue(matches.get(1).getAfter().isEmpty());
+    }
+
+    @Test
+    public void searchMaxMatchesTest() throws IOException {
+        File file = createFile("test.log", Arrays.asList("ERROR 1", "ERROR 2", "ERROR 3"));
+        List<SearchMatch> matches = new FileSearch("ERROR").maxMatches(2).search(file);
+        assertEquals(2, matches.size());
+        assertEquals("ERROR 2", matches.get(1).getLine());
+    }
+
+    @Test
+    public void searchMappedWindowsTest() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            lines.add(i % 100 == 0 ? "ERROR " + i : "INFO " + i);
+        }
+        File file = createFile("test.log", lines);
+        List<SearchMatch> matches = new FileSearch("ERROR")
+                .contextLines(3)
+                .mapThreshold(0)
+                .windowSize(64)
+                .search(file);
+        assertEquals(10, matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            int number = (i + 1) * 100;
+            SearchMatch match = matches.get(i);
+            assertEquals(number, match.getLineNumber());
+            assertEquals("ERROR " + number, match.getLine());
+            assertEquals(Arrays.asList("INFO " + (number - 3), "INFO " + (number - 2), "INFO " + (number - 1)), match.getBefore());
+            if (number < 1000) {
+                assertEquals(Arrays.asList("INFO " + (number + 1), "INFO " + (number + 2), "INFO " + (number + 3)), match.getAfter());
+            }
+        }
+    }
+
+    @Test
+    public void searchMappedLongLineTest() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append('x');
+        }
+        File file = createFile("test.log", Arrays.asList("INFO", sb.toString() + "ERROR", "INFO"));
+        List<SearchMatch> matches = new FileSearch("ERROR").mapThreshold(0).windowSize(16).search(file);
+        assertEquals(1, matches.size());
+        assertEquals(2, matches.get(0).getLineNumber());
+    }
+
+    @Test
+    public void searchDirectoryTest() throws IOException {
+        File directory = temporaryFolder.newFolder("logs");
+        File nested = temporaryFolder.newFolder("logs", "nested");
+        FileUtils.createFile(new File(directory, "a.log").getAbsolutePath(), "ERROR a");
+        FileUtils.createFile(new File(directory, "b.log").getAbsolutePath(), "INFO b");
+        FileUtils.createFile(new File(nested, "c.log").getAbsolutePath(), "INFO c\nERROR c");
+        List<SearchMatch> matches = new FileSearch("ERROR").search(directory.toPath());
+        assertEquals(2, matches.size());
+    }
+
+    @Test
+    public void searchSymbolicLinkDirectoryTest() throws IOException {
+        File directory = temporaryFolder.newFolder("logs");
+        FileUtils.createFile(new File(directory, "a.log").getAbsolutePath(), "INFO a\nERROR a");
+        Path link = temporaryFolder.getRoot().toPath().resolve("link");
+        Files.createSymbolicLink(link, directory.toPath());
+        List<SearchMatch> matches = new FileSearch("ERROR").search(link);
+        assertEquals(1, matches.size());
+        assertEquals(link.resolve("a.log"), matches.get(0).getPath());
+    }
+
+    @Test
+    public void searchDirectoryMaxMatchesTest() throws IOException {
+        File directory = temporaryFolder.newFolder("logs");
+        for (int i = 0; i < 10; i++) {
+            FileUtils.createFile(new File(directory, i + ".log").getAbsolutePath(), "ERROR 1\nERROR 2");
+        }
+        assertEquals(5, new FileSearch("ERROR").maxMatches(5).search(directory).size());
+    }
+
+    @Test
+    public void searchSkipsMissingFilesTest() throws IOException {
+        File directory = temporaryFolder.newFolder("logs");
+        File file = new File(directory, "a.log");
+        FileUtils.createFile(file.getAbsolutePath(), "ERROR a");
+        List<Path> files = Arrays.asList(directory.toPath().resolve("rotated.log"), file.toPath());
+        List<SearchMatch> matches = new FileSearch("ERROR").searchFiles(files, new AtomicInteger(Integer.MAX_VALUE));
+        assertEquals(1, matches.size());
+        assertEquals("ERROR a", matches.get(0).getLine());
+    }
+
+    @Test(expected = IOException.class)
+    public void searchMissingFileTest() throws IOException {
+        new FileSearch("ERROR").search(temporaryFolder.getRoot().toPath().resolve("missing.log"));
+    }
+
+    @Test(expected = IOException.class)
+    public void searchNullPathTest() throws IOException {
+        Path path = null;
+        new FileSearch("ERROR").search(path);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void searchEmptyPatternTest() {
+        new FileSearch("");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void searchLineBreakPatternTest() {
+        new FileSearch("ERROR\n");
+    }
+
+}
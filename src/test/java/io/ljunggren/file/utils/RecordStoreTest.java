@@ -0,0 +1,213 @@
+package io.ljunggren.file.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RecordStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private List<String> readAll(RecordStore store) throws IOException {
+        List<String> records = new ArrayList<>();
+        RecordReader reader = store.reader();
+        RecordEntry entry;
+        while ((entry = reader.next()) != null) {
+            records.add(new String(entry.getData()));
+        }
+        return records;
+    }
+
+    @Test
+    public void appendReadTest() throws IOException {
+        File directory = temporaryFolder.newFolder("store");
+        try (RecordStore store = new RecordStore(directory)) {
+            long first = store.append("first");
+            long second = store.append("second");
+            assertEquals(0, first);
+            assertEquals(first + 8 + 5, second);
+            assertEquals("first", new String(store.read(first).getData()));
+            assertEquals("second", new String(store.read(second).getData()));
+            assertEquals(second, store.read(first).getNextOffset());
+            assertNull(store.read(store.getEndOffset()));
+        }
+    }
+
+    @Test
+    public void appendEmptyRecordTest() throws IOException {
+        File directory = temporaryFolder.newFolder("store");
+        try (RecordStore store = new RecordStore(directory)) {
+            store.append(new byte[] {});
+            store.append("after");
+        }
+        try (RecordStore store = new RecordStore(directory)) {
+            List<String> records = readAll(store);
+            assertEquals(2, records.size());
+            assertEquals("", records.get(0));
+            assertEquals("after", records.get(1));
+        }
+    }
+
+    @Test
+    public void segmentsTest() throws IOException {
+        Path directory = temporaryFolder.newFolder("store").toPath();
+        List<String> expected = new ArrayList<>();
+        try (RecordStore store = new RecordStore(directory, 64)) {
+            for (int i = 0; i < 50; i++) {
+                String record = "record " + i;
+                store.append(record);
+                expected.add(record);
+            }
+            assertEquals(expected, readAll(store));
+        }
+        List<File> segments = FileUtils.filterBySuffix(FileUtils.listFiles(directory), RecordStore.SEGMENT_EXTENSION);
+        assertTrue(segments.size() > 1);
+        for (File segment : segments) {
+            assertEquals(64, segment.length());
+        }
+    }
+
+    @Test
+    public void readerOffsetTest() throws IOException {
+        Path directory = temporaryFolder.newFolder("store").toPath();
+        try (RecordStore store = new RecordStore(directory, 64)) {
+            List<Long> offsets = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                offsets.add(store.append("record " + i));
+            }
+            RecordReader reader = store.reader(offsets.get(10));
+            for (int i = 10; i < 20; i++) {
+                assertTrue(reader.hasNext());
+                RecordEntry entry = reader.next();
+                assertEquals((long) offsets.get(i), entry.getOffset());
+                assertEquals("record " + i, new String(entry.getData()));
+            }
+            assertFalse(reader.hasNext());
+            assertNull(reader.next());
+            store.append("record 20");
+            assertEquals("record 20", new String(reader.next().getData()));
+        }
+    }
+
+    @Test
+    public void reopenTest() throws IOException {
+        Path directory = temporaryFolder.newFolder("store").toPath();
+        long end;
+        try (RecordStore store = new RecordStore(directory, 64)) {
+            for (int i = 0; i < 10; i++) {
+                store.append("record " + i);
+            }
+            end = store.getEndOffset();
+        }
+        try (RecordStore store = new RecordStore(directory, 64)) {
+            assertEquals(end, store.getEndOffset());
+            assertEquals(end, store.append("record 10"));
+            List<String> records = readAll(store);
+            assertEquals(11, records.size());
+            assertEquals("record 10", records.get(10));
+        }
+    }
+
+    @Test
+    public void tornTailTest() throws IOException {
+        Path directory = temporaryFolder.newFolder("store").toPath();
+        long torn;
+        try (RecordStore store = new RecordStore(directory)) {
+            store.append("first");
+            store.append("second");
+            torn = store.append("third");
+        }
+        File segment = FileUtils.filterBySuffix(FileUtils.listFiles(directory), RecordStore.SEGMENT_EXTENSION).get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(torn + 8 + 2);
+            file.write('X');
+        }
+        try (RecordStore store = new RecordStore(directory)) {
+            assertEquals(torn, store.getEndOffset());
+            store.append("fourth");
+            List<String> records = readAll(store);
+            assertEquals(3, records.size());
+            assertEquals("fourth", records.get(2));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptRecordTest() throws IOException {
+        Path directory = temporaryFolder.newFolder("store").toPath();
+        try (RecordStore store = new RecordStore(directory, 64)) {
+            store.append("first");
+            store.append(new byte[40]);
+            store.append(new byte[40]);
+        }
+        File segment = FileUtils.filterBySuffix(FileUtils.listFiles(directory), RecordStore.SEGMENT_EXTENSION).stream()
+                .filter(file -> file.getName().startsWith("00000000000000000000"))
+                .findFirst()
+                .get();
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(8);
+            file.write('X');
+        }
+        try (RecordStore store = new RecordStore(directory, 64)) {
+            store.read(0);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void recordExceedsSegmentSizeTest() throws IOException {
+        Path directory = temporaryFolder.newFolder("store").toPath();
+        try (RecordStore store = new RecordStore(directory, 64)) {
+            store.append(new byte[64]);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void appendNullTest() throws IOException {
+        Path directory = temporaryFolder.newFolder("store").toPath();
+        try (RecordStore store = new RecordStore(directory)) {
+            byte[] data = null;
+            store.append(data);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void appendClosedTest() throws IOException {
+        Path directory = temporaryFolder.newFolder("store").toPath();
+        RecordStore store = new RecordStore(directory);
+        store.close();
+        store.append("closed");
+    }
+
+    @Test
+    public void binaryRecordTest() throws IOException {
+        Path directory = temporaryFolder.newFolder("store").toPath();
+        byte[] data = new byte[256];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        try (RecordStore store = new RecordStore(directory)) {
+            long offset = store.append(data);
+            assertArrayEquals(data, store.read(offset).getData());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void nullDirectoryTest() throws IOException {
+        Path directory = null;
+        new RecordStore(directory);
+    }
+
+}
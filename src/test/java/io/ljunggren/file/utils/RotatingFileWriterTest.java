@@ -0,0 +1,300 @@
+package io.ljunggren.file.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RotatingFileWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private List<File> rotatedFiles(Path path) throws IOException {
+        return FileUtils.filterByPrefix(FileUtils.listFiles(path.getParent()), path.getFileName() + ".");
+    }
+
+    private String readAll(Path path) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (File file : rotatedFiles(path)) {
+            sb.append(readRotated(file));
+        }
+        if (FileUtils.exists(path)) {
+            sb.append(FileUtils.readFile(path));
+        }
+        return sb.toString();
+    }
+
+    private String readRotated(File file) throws IOException {
+        if (!file.getName().endsWith(RotatingFileWriter.COMPRESSED_EXTENSION)) {
+            return FileUtils.readFile(file);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return new String(out.toByteArray());
+    }
+
+    @Test
+    public void writeTest() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("app.log");
+        try (RotatingFileWriter writer = new RotatingFileWriter(path)) {
+            writer.write("This is ");
+            writer.write("a test file.");
+        }
+        assertEquals("This is a test file.", FileUtils.readFile(path));
+        assertTrue(rotatedFiles(path).isEmpty());
+    }
+
+    @Test
+    public void writeAppendsToExistingFileTest() throws IOException {
+        File file = temporaryFolder.newFile("app.log");
+        FileUtils.writeToFile(file.getAbsolutePath(), "existing");
+        try (RotatingFileWriter writer = new RotatingFileWriter(file)) {
+            writer.writeLine("");
+            writer.write("appended");
+        }
+        assertEquals("existing" + FileUtils.NEW_LINE + "appended", FileUtils.readFile(file));
+    }
+
+    @Test
+    public void rolloverBySizeTest() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("app.log");
+        StringBuilder expected = new StringBuilder();
+        try (RotatingFileWriter writer = new RotatingFileWriter(path).maxSize(100)) {
+            for (int i = 0; i < 100; i++) {
+                String line = "line " + i;
+                writer.writeLine(line);
+                expected.append(line).append(FileUtils.NEW_LINE);
+            }
+        }
+        assertTrue(rotatedFiles(path).size() > 0);
+        for (File file : rotatedFiles(path)) {
+            assertTrue(file.length() > 0);
+        }
+        String content = readAll(path);
+        assertEquals(expected.length(), content.length());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(content.contains("line " + i + FileUtils.NEW_LINE));
+        }
+    }
+
+    @Test
+    public void rolloverByIntervalTest() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("app.log");
+        AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        try (RotatingFileWriter writer = new RotatingFileWriter(path).clock(now::get).interval(Duration.ofHours(1))) {
+            writer.write("first");
+            now.addAndGet(Duration.ofHours(2).toMillis());
+            writer.write("second");
+        }
+        List<File> rotated = rotatedFiles(path);
+        assertEquals(1, rotated.size());
+        assertEquals("firstsecond", FileUtils.readFile(rotated.get(0)));
+    }
+
+    @Test
+    public void rolloverByIntervalExistingFileTest() throws IOException {
+        File file = temporaryFolder.newFile("app.log");
+        FileUtils.writeToFile(file.getAbsolutePath(), "existing");
+        file.setLastModified(System.currentTimeMillis() - Duration.ofHours(1).toMillis());
+        try (RotatingFileWriter writer = new RotatingFileWriter(file).interval(Duration.ofMinutes(30))) {
+            writer.write("appended");
+        }
+        List<File> rotated = rotatedFiles(file.toPath());
+        assertEquals(1, rotated.size());
+        assertEquals("existingappended", FileUtils.readFile(rotated.get(0)));
+    }
+
+    @Test
+    public void rolloverManualTest() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("app.log");
+        try (RotatingFileWriter writer = new RotatingFileWriter(path)) {
+            writer.write("first");
+            writer.rollover();
+        }
+        List<File> rotated = rotatedFiles(path);
+        assertEquals(1, rotated.size());
+        assertEquals("first", FileUtils.readFile(rotated.get(0)));
+        assertTrue(FileUtils.readFile(path).isEmpty());
+    }
+
+    @Test
+    public void rolloverCompressTest() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("app.log");
+        try (RotatingFileWriter writer = new RotatingFileWriter(path).compress(true)) {
+            writer.write("first");
+            writer.rollover();
+        }
+        List<File> rotated = rotatedFiles(path);
+        assertEquals(1, rotated.size());
+        assertTrue(rotated.get(0).getName().endsWith(RotatingFileWriter.COMPRESSED_EXTENSION));
+        assertEquals("first", readRotated(rotated.get(0)));
+    }
+
+    @Test
+    public void rolloverDuringCompressionTest() throws Exception {
+        Path path = temporaryFolder.getRoot().toPath().resolve("app.log");
+        CountDownLatch blocked = new CountDownLatch(1);
+        try (RotatingFileWriter writer = new RotatingFileWriter(path).compress(true)) {
+            try {
+                writer.getArchiver().submit(() -> {
+                    blocked.await();
+                    return null;
+                });
+                writer.write("first");
+                writer.rollover();
+                writer.getRotator().submit(() -> null).get(10, TimeUnit.SECONDS);
+                writer.write("second");
+                assertEquals("second", FileUtils.readFile(path));
+                List<File> rotated = rotatedFiles(path);
+                assertEquals(1, rotated.size());
+                assertEquals("first", FileUtils.readFile(rotated.get(0)));
+            } finally {
+                blocked.countDown();
+            }
+        }
+        List<File> rotated = rotatedFiles(path);
+        assertEquals(1, rotated.size());
+        assertEquals("first", readRotated(rotated.get(0)));
+    }
+
+    @Test
+    public void retentionMaxFilesTest() throws Exception {
+        Path path = temporaryFolder.getRoot().toPath().resolve("app.log");
+        try (RotatingFileWriter writer = new RotatingFileWriter(path).maxFiles(3)) {
+            for (int i = 0; i < 6; i++) {
+                writer.write("segment " + i);
+                writer.rollover();
+                writer.getRotator().submit(() -> null).get(10, TimeUnit.SECONDS);
+            }
+        }
+        List<String> contents = new ArrayList<>();
+        for (File file : rotatedFiles(path)) {
+            contents.add(FileUtils.readFile(file));
+        }
+        Collections.sort(contents);
+        assertEquals(Arrays.asList("segment 3", "segment 4", "segment 5"), contents);
+    }
+
+    @Test
+    public void retentionIgnoresUnrelatedFilesTest() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("app.log");
+        File backup = temporaryFolder.newFile("app.log.bak");
+        File config = temporaryFolder.newFile("app.log.config");
+        backup.setLastModified(System.currentTimeMillis() - Duration.ofDays(30).toMillis());
+        try (RotatingFileWriter writer = new RotatingFileWriter(path).maxFiles(1).maxAge(Duration.ofDays(7))) {
+            writer.write("first");
+            writer.rollover();
+            writer.flush();
+            writer.write("second");
+            writer.rollover();
+        }
+        assertTrue(backup.exists());
+        assertTrue(config.exists());
+    }
+
+    @Test
+    public void retentionMaxAgeTest() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("app.log");
+        File old = temporaryFolder.newFile("app.log.20000101-000000-000");
+        old.setLastModified(System.currentTimeMillis() - Duration.ofDays(30).toMillis());
+        try (RotatingFileWriter writer = new RotatingFileWriter(path).maxAge(Duration.ofDays(7))) {
+            writer.write("first");
+            writer.rollover();
+        }
+        List<File> rotated = rotatedFiles(path);
+        assertEquals(1, rotated.size());
+        assertEquals("first", FileUtils.readFile(rotated.get(0)));
+    }
+
+    @Test
+    public void concurrentWriteTest() throws Exception {
+        Path path = temporaryFolder.getRoot().toPath().resolve("app.log");
+        int threads = 4;
+        int lines = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (RotatingFileWriter writer = new RotatingFileWriter(path).maxSize(1000)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < lines; i++) {
+                        writer.write("thread " + thread + " line " + i + "\n");
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        String content = readAll(path);
+        assertEquals(threads * lines, content.split("\n").length);
+    }
+
+    @Test(expected = IOException.class)
+    public void writeReportsFailureTest() throws Exception {
+        Path path = temporaryFolder.getRoot().toPath().resolve("app.log");
+        CountDownLatch blocked = new CountDownLatch(1);
+        RotatingFileWriter writer = new RotatingFileWriter(path).compress(true);
+        try {
+            writer.getArchiver().submit(() -> {
+                blocked.await();
+                return null;
+            });
+            writer.write("first");
+            writer.rollover();
+            writer.getRotator().submit(() -> null).get();
+            FileUtils.deleteFile(rotatedFiles(path).get(0).toPath());
+            blocked.countDown();
+            writer.getArchiver().submit(() -> null).get();
+            writer.write("second");
+        } finally {
+            blocked.countDown();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void writeClosedTest() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("app.log");
+        RotatingFileWriter writer = new RotatingFileWriter(path);
+        writer.close();
+        writer.write("closed");
+    }
+
+    @Test(expected = IOException.class)
+    public void nullPathTest() throws IOException {
+        Path path = null;
+        new RotatingFileWriter(path);
+    }
+
+}